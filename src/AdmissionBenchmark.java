@@ -0,0 +1,207 @@
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures the cost of admission control and the checkout tail latency when the
+ * library is driven well past its concurrency limit. Per-user rate limits are set so
+ * they never trigger in the overload run, so the figures show the concurrency
+ * limiter queuing and shedding. Latency is reported separately for each result.
+ * Run from the IDE like Main; optional arguments: threads, seconds.
+ */
+public class AdmissionBenchmark {
+
+    private static final int USERS = 200;
+    private static final int ITEMS = 64;
+    // Simulated cost of persisting one loan change, so the checkout path has real work to queue behind
+    private static final long WORK_NANOS = 50_000;
+    // Pause before retrying a shed return, so retries do not spin and steal CPU from the run
+    private static final long RETRY_BACKOFF_NANOS = 200_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        measureOverhead();
+        measureOverload(threads, seconds);
+    }
+
+    // Per-call cost of the limiter itself, with limits high enough to never reject
+    private static void measureOverhead() {
+        int calls = 5_000_000;
+        User user = new User("BENCH", "Bench User");
+        AdmissionController controller = new AdmissionController(1e9, Integer.MAX_VALUE / 2, 1024, 0);
+
+        for (int round = 0; round < 2; round++) { // first round is JIT warm-up
+            long start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                controller.admitBorrow(user, () -> true);
+            }
+            long elapsed = System.nanoTime() - start;
+            if (round == 1) {
+                System.out.println("=== Admission Overhead ===");
+                System.out.printf("admitBorrow (token bucket + slot): %.1f ns/call%n", (double) elapsed / calls);
+            }
+        }
+    }
+
+    private static void measureOverload(int threads, int seconds) throws InterruptedException {
+        Library library = Library.getInstance();
+        // Rate limits that never trigger, a small concurrency limit and a short queue,
+        // so the offered load is far above what the limiter lets through
+        AdmissionController controller = new AdmissionController(1e9, Integer.MAX_VALUE / 2, 4, 2);
+        library.setAdmissionController(controller);
+        library.addLoanListener(new SimulatedWork());
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(new User("B" + i, "Bench User " + i));
+        }
+        for (int i = 0; i < ITEMS; i++) {
+            library.addItem(ItemFactory.createItem("kitchen", "BENCH" + i, "Bench Appliance " + i, "1 Litre"));
+        }
+        List<BorrowableItem> items = library.getAllItems();
+
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Map<LoanResult, LatencyHistogram>> perThread = new ArrayList<>();
+        long[] shedReturns = new long[threads];
+        List<Thread> workers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            int slot = t;
+            Map<LoanResult, LatencyHistogram> histograms = new EnumMap<>(LoanResult.class);
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    User user = users.get(random.nextInt(users.size()));
+                    BorrowableItem item = items.get(random.nextInt(items.size()));
+                    long start = System.nanoTime();
+                    LoanResult result = library.checkout(user, item);
+                    histograms.computeIfAbsent(result, r -> new LatencyHistogram()).record(System.nanoTime() - start);
+                    if (result == LoanResult.SUCCESS) {
+                        // Keep retrying shed returns, or the item would stay on loan for the rest of the run
+                        while (library.checkin(item) == LoanResult.OVERLOADED) {
+                            shedReturns[slot]++;
+                            LockSupport.parkNanos(RETRY_BACKOFF_NANOS);
+                        }
+                    }
+                }
+            });
+            perThread.add(histograms);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        Map<LoanResult, LatencyHistogram> totals = new EnumMap<>(LoanResult.class);
+        for (Map<LoanResult, LatencyHistogram> histograms : perThread) {
+            histograms.forEach((result, histogram) -> totals.computeIfAbsent(result, r -> new LatencyHistogram()).add(histogram));
+        }
+        long retries = 0;
+        for (long n : shedReturns) {
+            retries += n;
+        }
+
+        System.out.println("=== Checkout Under Overload (" + threads + " threads, " + seconds + "s, "
+                + WORK_NANOS / 1000 + " us work per loan change) ===");
+        System.out.printf("%-13s %10s %10s %10s %10s %10s%n", "Result", "Count", "p50 us", "p99 us", "p99.9 us", "max us");
+        totals.forEach((result, histogram) -> System.out.printf("%-13s %10d %10.1f %10.1f %10.1f %10.1f%n",
+                result, histogram.getCount(), histogram.percentile(0.50) / 1e3, histogram.percentile(0.99) / 1e3,
+                histogram.percentile(0.999) / 1e3, histogram.getMax() / 1e3));
+        System.out.println("Shed returns retried: " + retries);
+    }
+
+    /**
+     * Busy-waits on every loan change to stand in for a database write.
+     */
+    private static class SimulatedWork implements LoanListener {
+        @Override
+        public void onBorrow(User user, BorrowableItem item) {
+            spin();
+        }
+
+        @Override
+        public void onReturn(User user, BorrowableItem item) {
+            spin();
+        }
+
+        @Override
+        public void onPointsAwarded(User user, int points) {
+        }
+
+        private static void spin() {
+            long end = System.nanoTime() + WORK_NANOS;
+            while (System.nanoTime() < end) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Fixed-size log-linear histogram (16 sub-buckets per power of two, so values are
+     * within about 6%). Uses a few KB however many samples are recorded.
+     */
+    private static class LatencyHistogram {
+        private static final int SUB_BUCKETS = 16;
+        private final long[] counts = new long[64 * SUB_BUCKETS];
+        private long count;
+        private long max;
+
+        void record(long nanos) {
+            counts[index(nanos)]++;
+            count++;
+            max = Math.max(max, nanos);
+        }
+
+        void add(LatencyHistogram other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+            }
+            count += other.count;
+            max = Math.max(max, other.max);
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        long getMax() {
+            return max;
+        }
+
+        // Lower bound of the bucket holding the p-th fraction of samples
+        long percentile(double p) {
+            long target = (long) Math.ceil(p * count);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target && counts[i] > 0) {
+                    return lowerBound(i);
+                }
+            }
+            return max;
+        }
+
+        private static int index(long nanos) {
+            if (nanos < SUB_BUCKETS) {
+                return (int) Math.max(nanos, 0);
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+            int sub = (int) ((nanos >>> (exponent - 4)) & (SUB_BUCKETS - 1));
+            return (exponent - 3) * SUB_BUCKETS + sub;
+        }
+
+        private static long lowerBound(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int exponent = index / SUB_BUCKETS + 3;
+            return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (exponent - 4);
+        }
+    }
+}
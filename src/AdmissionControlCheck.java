@@ -0,0 +1,101 @@
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Runnable check of TokenBucket and AdmissionController: refunds never overfill
+ * a bucket, only shed borrows are refunded, failed attempts still count against
+ * the user's rate, and idle buckets are dropped.
+ * Run from the IDE like Main; exits with status 1 if any check fails.
+ */
+public class AdmissionControlCheck {
+
+    // So slow that no token refills while the check runs
+    private static final double NO_REFILL = 0.001;
+    private static int failures = 0;
+
+    public static void main(String[] args) throws InterruptedException {
+        checkRefund();
+        checkFailedAttemptsCount();
+        checkShedBorrowsAreRefunded();
+        checkIdleBucketsEvicted();
+        System.out.println(failures == 0 ? "All admission checks passed." : failures + " admission check(s) failed.");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static void checkRefund() {
+        TokenBucket bucket = new TokenBucket(NO_REFILL, 3);
+        check(takeAll(bucket) == 3, "a new bucket holds its capacity");
+        bucket.refund();
+        check(takeAll(bucket) == 1, "a refund returns exactly one token");
+
+        TokenBucket full = new TokenBucket(NO_REFILL, 3);
+        full.refund();
+        full.refund();
+        check(takeAll(full) == 3, "refunds never take a bucket above capacity");
+    }
+
+    private static void checkFailedAttemptsCount() {
+        AdmissionController controller = new AdmissionController(NO_REFILL, 2, 4, 0);
+        User user = new User("C1", "Check User");
+        LoanResult first = controller.admitBorrow(user, () -> false);
+        LoanResult second = controller.admitBorrow(user, () -> false);
+        LoanResult third = controller.admitBorrow(user, () -> true);
+        check(first == LoanResult.UNAVAILABLE && second == LoanResult.UNAVAILABLE && third == LoanResult.RATE_LIMITED,
+                "attempts on unavailable items use up the rate");
+    }
+
+    private static void checkShedBorrowsAreRefunded() throws InterruptedException {
+        AdmissionController controller = new AdmissionController(NO_REFILL, 1, 1, 0);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> controller.admitReturn(() -> {
+            holding.countDown();
+            await(release);
+            return true;
+        }));
+        holder.start();
+        holding.await();
+
+        User user = new User("C2", "Check User");
+        LoanResult shed = controller.admitBorrow(user, () -> true);
+        release.countDown();
+        holder.join();
+        LoanResult retry = controller.admitBorrow(user, () -> true);
+        check(shed == LoanResult.OVERLOADED && retry == LoanResult.SUCCESS, "a shed borrow gives its token back");
+    }
+
+    private static void checkIdleBucketsEvicted() throws InterruptedException {
+        AdmissionController controller = new AdmissionController(10_000, 1, 4, 0);
+        for (int i = 0; i < 10_000; i++) {
+            controller.admitBorrow(new User("E" + i, "Check User"), () -> true);
+        }
+        Thread.sleep(10); // every bucket refills in 0.1 ms
+        User regular = new User("E-REGULAR", "Check User");
+        for (int i = 0; i < 5_000; i++) {
+            controller.admitBorrow(regular, () -> true);
+        }
+        check(controller.getTrackedUserCount() <= 2, "idle buckets are dropped (" + controller.getTrackedUserCount() + " left)");
+    }
+
+    private static int takeAll(TokenBucket bucket) {
+        int taken = 0;
+        while (bucket.tryAcquire()) {
+            taken++;
+        }
+        return taken;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void check(boolean condition, String description) {
+        System.out.println((condition ? "PASS: " : "FAIL: ") + description);
+        if (!condition) {
+            failures++;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Admission control in front of the Library's borrow/return operations.
+ *
+ * Two checks run before the checkout logic:
+ * 1. Per-user rate limit (borrows only): each user has a lock-free TokenBucket.
+ *    The token is refunded only if the borrow is shed, so the user is not
+ *    penalised for the library being busy. Attempts on an item that is already on
+ *    loan still count, so hammering an unavailable item is throttled too.
+ *    Returns are never rate limited, so members can always give items back.
+ *    Buckets that have refilled completely are dropped every SWEEP_INTERVAL borrows,
+ *    so the map only holds users who borrowed recently.
+ * 2. Global concurrency limit (borrows and returns): at most maxConcurrent requests
+ *    run at once. Excess requests wait up to maxQueueWaitMillis for a slot,
+ *    or are shed straight away when that is 0.
+ */
+public class AdmissionController {
+
+    public static final double DEFAULT_BORROWS_PER_SECOND = 2.0;
+    public static final int DEFAULT_BORROW_BURST = 5;
+    public static final int DEFAULT_MAX_CONCURRENT = 32;
+    public static final long DEFAULT_MAX_QUEUE_WAIT_MILLIS = 50;
+    // Borrow requests between sweeps of idle buckets
+    private static final long SWEEP_INTERVAL = 4096;
+
+    // --- Properties ---
+    private final double borrowsPerSecond;
+    private final int borrowBurst;
+    private final long maxQueueWaitMillis;
+    private final Map<String, TokenBucket> userBuckets;
+    private final Semaphore slots;
+    private final LongAdder admitted;
+    private final LongAdder rateLimited;
+    private final LongAdder shed;
+    private final AtomicLong borrowRequests;
+
+    public AdmissionController() {
+        this(DEFAULT_BORROWS_PER_SECOND, DEFAULT_BORROW_BURST, DEFAULT_MAX_CONCURRENT, DEFAULT_MAX_QUEUE_WAIT_MILLIS);
+    }
+
+    /**
+     * A controller that never rate limits or sheds, for trusted batch and admin jobs.
+     */
+    public static AdmissionController unlimited() {
+        return new AdmissionController(1e9, Integer.MAX_VALUE / 2, Integer.MAX_VALUE, 0);
+    }
+
+    public AdmissionController(double borrowsPerSecond, int borrowBurst, int maxConcurrent, long maxQueueWaitMillis) {
+        this.borrowsPerSecond = borrowsPerSecond;
+        this.borrowBurst = borrowBurst;
+        this.maxQueueWaitMillis = maxQueueWaitMillis;
+        this.userBuckets = new ConcurrentHashMap<>();
+        this.slots = new Semaphore(maxConcurrent);
+        this.admitted = new LongAdder();
+        this.rateLimited = new LongAdder();
+        this.shed = new LongAdder();
+        this.borrowRequests = new AtomicLong();
+    }
+
+    /**
+     * Runs a borrow if the user is within their rate and a slot is free.
+     * @param operation The checkout logic; returns true if the item was lent.
+     */
+    public LoanResult admitBorrow(User user, Supplier<Boolean> operation) {
+        if (borrowRequests.incrementAndGet() % SWEEP_INTERVAL == 0) {
+            sweepIdleBuckets();
+        }
+        TokenBucket bucket = userBuckets.computeIfAbsent(user.getUserId(),
+                id -> new TokenBucket(borrowsPerSecond, borrowBurst));
+        if (!bucket.tryAcquire()) {
+            rateLimited.increment();
+            return LoanResult.RATE_LIMITED;
+        }
+        LoanResult result = runWithSlot(operation);
+        if (result == LoanResult.OVERLOADED) {
+            bucket.refund();
+        }
+        return result;
+    }
+
+    /**
+     * Runs a return if a slot is free.
+     * @param operation The return logic; returns true if the item came back.
+     */
+    public LoanResult admitReturn(Supplier<Boolean> operation) {
+        return runWithSlot(operation);
+    }
+
+    // --- Metrics ---
+    public long getAdmittedCount() {
+        return admitted.sum();
+    }
+
+    public long getRateLimitedCount() {
+        return rateLimited.sum();
+    }
+
+    public long getShedCount() {
+        return shed.sum();
+    }
+
+    public int getTrackedUserCount() {
+        return userBuckets.size();
+    }
+
+    // A full bucket is the same as a new one, so dropping it loses nothing. If a request
+    // is using a bucket as it is dropped, that user gets at most one extra token.
+    private void sweepIdleBuckets() {
+        userBuckets.values().removeIf(TokenBucket::isFull);
+    }
+
+    private LoanResult runWithSlot(Supplier<Boolean> operation) {
+        if (!acquireSlot()) {
+            shed.increment();
+            return LoanResult.OVERLOADED;
+        }
+        try {
+            admitted.increment();
+            return operation.get() ? LoanResult.SUCCESS : LoanResult.UNAVAILABLE;
+        } finally {
+            slots.release();
+        }
+    }
+
+    private boolean acquireSlot() {
+        if (slots.tryAcquire()) {
+            return true;
+        }
+        if (maxQueueWaitMillis <= 0) {
+            return false;
+        }
+        try {
+            return slots.tryAcquire(maxQueueWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
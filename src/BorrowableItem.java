@@ -8,6 +8,8 @@ public abstract class BorrowableItem {
     private boolean isAvailable;
     // Association: An item "knows" who borrowed it
     private User currentUser;
+    // Dashboard counters to notify of loan changes (set by the Library, may be null)
+    private InventoryCounters counters;
 
     public BorrowableItem(String itemID, String name) {
         this.itemID = itemID;
@@ -18,6 +20,9 @@ public abstract class BorrowableItem {
 
     public abstract void print();
 
+    // Display name of the item's category, e.g. "Workshop Tool"
+    public abstract String getCategory();
+
     public String getItemID() {
         return this.itemID;
     }
@@ -36,12 +41,28 @@ public abstract class BorrowableItem {
 
     // Update availability AND link the user
     public void setBorrowedBy(User user) {
+        if (counters != null) {
+            if (!isAvailable) {
+                counters.loanEnded(this, currentUser);
+            }
+            counters.loanStarted(this, user);
+        }
         this.currentUser = user;
         this.isAvailable = false;
     }
 
     public void returnToLibrary() {
+        if (counters != null && !isAvailable) {
+            counters.loanEnded(this, currentUser);
+        }
         this.currentUser = null;
         this.isAvailable = true;
     }
+
+    void attachCounters(InventoryCounters counters) {
+        this.counters = counters;
+        if (!isAvailable) {
+            counters.loanStarted(this, currentUser);
+        }
+    }
 }
\ No newline at end of file
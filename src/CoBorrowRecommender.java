@@ -0,0 +1,216 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Suggests items that are often borrowed together ("members who borrowed the
+ * Cordless Drill also borrowed...").
+ *
+ * It keeps a sparse item-item co-occurrence matrix that is updated on every borrow:
+ * the new item is paired with the last few items the same user borrowed. Each row
+ * also holds its ranked top suggestions. Counts only ever go up by one, so the
+ * ranking is kept current by moving the incremented item up (O(MAX_RANKED)); a full
+ * sort is only needed after a prune. recommend() never sorts.
+ *
+ * Memory stays bounded on very large catalogs because:
+ * - each row keeps at most maxNeighbours pairs (the weakest pairs are pruned),
+ * - all rows together hold at most maxEntries pairs and ranked entries; by default
+ *   this budget is about 1/16 of the maximum heap, and the least recently used rows
+ *   are evicted when it is exceeded,
+ * - at most maxUsers borrow histories are kept (least recently used are evicted).
+ */
+public class CoBorrowRecommender implements LoanListener {
+
+    public static final int DEFAULT_HISTORY_SIZE = 10;
+    public static final int DEFAULT_MAX_NEIGHBOURS = 100;
+    public static final int DEFAULT_MAX_USERS = 100_000;
+    // Longest ranked list kept per item; recommend() can return at most this many
+    public static final int MAX_RANKED = 20;
+
+    // Rough heap cost of one entry: HashMap node, boxed count and table slot
+    private static final int BYTES_PER_ENTRY = 64;
+
+    /**
+     * One row of the matrix with its precomputed ranking.
+     */
+    private static class Row {
+        private final Map<String, Integer> counts = new HashMap<>();
+        // Strongest first, at most MAX_RANKED entries
+        private List<String> ranked = new ArrayList<>();
+    }
+
+    // --- Properties ---
+    private final int historySize;
+    private final int maxNeighbours;
+    private final long maxEntries;
+    // Sparse matrix in access order, so the eldest row is the least recently used
+    private final LinkedHashMap<String, Row> rows;
+    // Pairs plus ranked entries across all rows, checked against maxEntries
+    private long totalEntries;
+    // userId -> most recently borrowed item IDs, newest first
+    private final Map<String, Deque<String>> recentBorrows;
+
+    public CoBorrowRecommender() {
+        this(DEFAULT_HISTORY_SIZE, DEFAULT_MAX_NEIGHBOURS, defaultEntryBudget(), DEFAULT_MAX_USERS);
+    }
+
+    public CoBorrowRecommender(int historySize, int maxNeighbours, long maxEntries, int maxUsers) {
+        this.historySize = historySize;
+        this.maxNeighbours = maxNeighbours;
+        this.maxEntries = maxEntries;
+        this.rows = new LinkedHashMap<>(16, 0.75f, true);
+        this.recentBorrows = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Deque<String>> eldest) {
+                return size() > maxUsers;
+            }
+        };
+    }
+
+    // --- LoanListener ---
+    @Override
+    public synchronized void onBorrow(User user, BorrowableItem item) {
+        String itemId = item.getItemID();
+        Deque<String> history = recentBorrows.computeIfAbsent(user.getUserId(), id -> new ArrayDeque<>());
+
+        boolean changed = false;
+        for (String other : history) {
+            if (!other.equals(itemId)) {
+                increment(row(other), itemId);
+                increment(row(itemId), other);
+                changed = true;
+            }
+        }
+        if (changed) {
+            evictOverBudget();
+        }
+
+        history.remove(itemId);
+        history.addFirst(itemId);
+        if (history.size() > historySize) {
+            history.removeLast();
+        }
+    }
+
+    @Override
+    public void onReturn(User user, BorrowableItem item) {
+        // Returns do not change what was borrowed together
+    }
+
+    @Override
+    public void onPointsAwarded(User user, int points) {
+    }
+
+    /**
+     * Returns up to k item IDs most often borrowed alongside the given item,
+     * strongest first (k is capped at MAX_RANKED).
+     */
+    public synchronized List<String> recommend(String itemId, int k) {
+        Row row = rows.get(itemId);
+        if (row == null) {
+            return Collections.emptyList();
+        }
+        return List.copyOf(row.ranked.subList(0, Math.min(k, row.ranked.size())));
+    }
+
+    public synchronized int getTrackedItemCount() {
+        return rows.size();
+    }
+
+    public synchronized long getTrackedEntryCount() {
+        return totalEntries;
+    }
+
+    // --- Inspection (used by CoBorrowRecommenderCheck) ---
+    synchronized Set<String> getTrackedItems() {
+        return Set.copyOf(rows.keySet());
+    }
+
+    synchronized Map<String, Integer> getCounts(String itemId) {
+        Row row = rows.get(itemId);
+        return row == null ? Map.of() : Map.copyOf(row.counts);
+    }
+
+    private Row row(String itemId) {
+        return rows.computeIfAbsent(itemId, id -> new Row());
+    }
+
+    private void increment(Row row, String other) {
+        int before = row.counts.size();
+        int count = row.counts.merge(other, 1, Integer::sum);
+        if (row.counts.size() > maxNeighbours) {
+            prune(row.counts);
+            totalEntries += row.counts.size() - before;
+            rerank(row);
+            return;
+        }
+        totalEntries += row.counts.size() - before;
+        moveUp(row, other, count);
+    }
+
+    // The ranking was correct before this count went up by one, so only this item can
+    // change position: it enters at the bottom (if it now beats the weakest) and moves up
+    private void moveUp(Row row, String id, int count) {
+        List<String> ranked = row.ranked;
+        int pos = ranked.indexOf(id);
+        if (pos < 0) {
+            if (ranked.size() < MAX_RANKED) {
+                ranked.add(id);
+                totalEntries++;
+            } else if (row.counts.get(ranked.get(ranked.size() - 1)) < count) {
+                ranked.set(ranked.size() - 1, id);
+            } else {
+                return;
+            }
+            pos = ranked.size() - 1;
+        }
+        while (pos > 0 && row.counts.get(ranked.get(pos - 1)) < count) {
+            Collections.swap(ranked, pos, pos - 1);
+            pos--;
+        }
+    }
+
+    // Drops the weakest pairs so the row shrinks to 3/4 of its limit,
+    // leaving room for new pairs before the next prune
+    private void prune(Map<String, Integer> counts) {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort(Map.Entry.comparingByValue());
+        int toRemove = counts.size() - (maxNeighbours * 3 / 4);
+        for (int i = 0; i < toRemove; i++) {
+            counts.remove(entries.get(i).getKey());
+        }
+    }
+
+    // Full rebuild of the ranking, needed after a prune removes pairs
+    private void rerank(Row row) {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(row.counts.entrySet());
+        entries.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+        int size = Math.min(MAX_RANKED, entries.size());
+        List<String> ranked = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ranked.add(entries.get(i).getKey());
+        }
+        totalEntries += ranked.size() - row.ranked.size();
+        row.ranked = ranked;
+    }
+
+    private void evictOverBudget() {
+        Iterator<Row> eldest = rows.values().iterator();
+        while (totalEntries > maxEntries && eldest.hasNext()) {
+            Row row = eldest.next();
+            totalEntries -= row.counts.size() + row.ranked.size();
+            eldest.remove();
+        }
+    }
+
+    private static long defaultEntryBudget() {
+        return Runtime.getRuntime().maxMemory() / 16 / BYTES_PER_ENTRY;
+    }
+}
@@ -0,0 +1,133 @@
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Runnable check of CoBorrowRecommender: pair counts match an independent recount,
+ * the incrementally maintained rankings always equal a valid top list, and pruning
+ * and the entry budget keep memory within their limits.
+ * Run from the IDE like Main; exits with status 1 if any check fails.
+ */
+public class CoBorrowRecommenderCheck {
+
+    private static final int HISTORY = 5;
+    private static int failures = 0;
+
+    public static void main(String[] args) {
+        checkAgainstRecount();
+        checkLimits();
+        System.out.println(failures == 0 ? "All recommender checks passed." : failures + " recommender check(s) failed.");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    // Limits too large to prune or evict, so every count must match a plain recount
+    private static void checkAgainstRecount() {
+        CoBorrowRecommender recommender = new CoBorrowRecommender(HISTORY, 10_000, Long.MAX_VALUE, 10_000);
+        Map<String, Map<String, Integer>> expected = new HashMap<>();
+        Map<String, Deque<String>> histories = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 50_000; i++) {
+            String userId = "U" + random.nextInt(300);
+            String itemId = "I" + skewed(random, 150);
+            recommender.onBorrow(new User(userId, userId), new KitchenAppliance(itemId, itemId, "1 Litre"));
+
+            Deque<String> history = histories.computeIfAbsent(userId, id -> new ArrayDeque<>());
+            for (String other : history) {
+                if (!other.equals(itemId)) {
+                    expected.computeIfAbsent(itemId, id -> new HashMap<>()).merge(other, 1, Integer::sum);
+                    expected.computeIfAbsent(other, id -> new HashMap<>()).merge(itemId, 1, Integer::sum);
+                }
+            }
+            history.remove(itemId);
+            history.addFirst(itemId);
+            if (history.size() > HISTORY) {
+                history.removeLast();
+            }
+        }
+
+        boolean countsMatch = true;
+        for (Map.Entry<String, Map<String, Integer>> row : expected.entrySet()) {
+            countsMatch &= row.getValue().equals(recommender.getCounts(row.getKey()));
+        }
+        check(countsMatch, "pair counts match an independent recount");
+        check(rankingsValid(recommender), "rankings are a valid top list for every item");
+        check(recommender.getTrackedEntryCount() == countEntries(recommender), "entry count matches the rows");
+    }
+
+    // Small limits so pruning and budget eviction happen constantly
+    private static void checkLimits() {
+        int maxNeighbours = 30;
+        long maxEntries = 5_000;
+        CoBorrowRecommender recommender = new CoBorrowRecommender(HISTORY, maxNeighbours, maxEntries, 1_000);
+        Random random = new Random(7);
+
+        boolean withinLimits = true;
+        boolean ranked = true;
+        for (int i = 0; i < 200_000; i++) {
+            String userId = "U" + random.nextInt(500);
+            String itemId = "I" + skewed(random, 5_000);
+            recommender.onBorrow(new User(userId, userId), new KitchenAppliance(itemId, itemId, "1 Litre"));
+            if (i % 20_000 == 0) {
+                withinLimits &= recommender.getTrackedEntryCount() <= maxEntries;
+                for (String item : recommender.getTrackedItems()) {
+                    withinLimits &= recommender.getCounts(item).size() <= maxNeighbours;
+                }
+                ranked &= rankingsValid(recommender);
+            }
+        }
+        check(withinLimits, "rows stay within maxNeighbours and the total within the entry budget");
+        check(ranked, "rankings stay valid through pruning and eviction");
+        check(recommender.getTrackedEntryCount() == countEntries(recommender), "entry count matches the rows after eviction");
+    }
+
+    // Ranked list must be strongest first, as long as the row allows, and nothing left out may beat it
+    private static boolean rankingsValid(CoBorrowRecommender recommender) {
+        for (String item : recommender.getTrackedItems()) {
+            Map<String, Integer> counts = recommender.getCounts(item);
+            List<String> ranked = recommender.recommend(item, CoBorrowRecommender.MAX_RANKED);
+            if (ranked.size() != Math.min(CoBorrowRecommender.MAX_RANKED, counts.size())) {
+                return false;
+            }
+            int weakest = Integer.MAX_VALUE;
+            for (String id : ranked) {
+                int count = counts.get(id);
+                if (count > weakest) {
+                    return false;
+                }
+                weakest = count;
+            }
+            for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+                if (!ranked.contains(entry.getKey()) && entry.getValue() > weakest) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static long countEntries(CoBorrowRecommender recommender) {
+        long entries = 0;
+        for (String item : recommender.getTrackedItems()) {
+            entries += recommender.getCounts(item).size();
+            entries += recommender.recommend(item, CoBorrowRecommender.MAX_RANKED).size();
+        }
+        return entries;
+    }
+
+    // A few popular items and a long tail, like a real catalog
+    private static int skewed(Random random, int items) {
+        double u = random.nextDouble();
+        return (int) (items * u * u * u);
+    }
+
+    private static void check(boolean condition, String description) {
+        System.out.println((condition ? "PASS: " : "FAIL: ") + description);
+        if (!condition) {
+            failures++;
+        }
+    }
+}
@@ -30,6 +30,11 @@ public class GardenTool extends BorrowableItem {
         return material;
     }
 
+    @Override
+    public String getCategory() {
+        return "Garden Tool";
+    }
+
     // --- Overridden Method ---
     /**
      * Provides a specific implementation for the print() method.
@@ -0,0 +1,20 @@
+import javafx.application.Platform;
+import javafx.stage.Stage;
+
+/**
+ * Used by StartupBenchmark: starts the normal GUI, makes one borrow as soon as
+ * the window is shown, then exits. Launched through "Main --startup-probe", the same
+ * way Main launches LibraryGUI; launching an Application subclass directly makes the
+ * java launcher abort when JavaFX is on the classpath rather than the module path.
+ */
+public class GuiStartupProbe extends LibraryGUI {
+
+    @Override
+    public void start(Stage primaryStage) {
+        super.start(primaryStage);
+        Library library = Library.getInstance();
+        LoanResult result = library.checkout(library.getActiveUser(), library.findItem("WT001"));
+        System.out.println("First borrow: " + result);
+        Platform.exit();
+    }
+}
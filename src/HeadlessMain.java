@@ -0,0 +1,114 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+
+/**
+ * Entry point that never touches JavaFX, for batch jobs and scripts.
+ *
+ * Usage:
+ *   HeadlessMain                         - runs the Sprint 2 console menu
+ *   HeadlessMain list                    - prints the catalog
+ *   HeadlessMain borrow <userId> <itemId>
+ *   HeadlessMain return <itemId>
+ *   HeadlessMain script [file]           - runs one command per line from the file (or stdin)
+ *
+ * Library state lives only in memory, so nothing carries over between runs: a
+ * "return" only makes sense after a "borrow" in the same script.
+ * Batch commands are trusted jobs, so they run without the member rate limits;
+ * the interactive console keeps them.
+ */
+public class HeadlessMain {
+
+    private static final String USAGE = "Usage: list | borrow <userId> <itemId> | return <itemId> | script [file]";
+
+    public static void main(String[] args) {
+        Library library = Library.getInstance();
+
+        if (args.length == 0) {
+            library.startApplication();
+            return;
+        }
+
+        library.setAdmissionController(AdmissionController.unlimited());
+        boolean ok;
+        if (args[0].equalsIgnoreCase("script")) {
+            ok = runScript(library, args.length > 1 ? args[1] : null);
+        } else {
+            ok = runCommand(library, args);
+        }
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    // Runs every line as a command; blank lines and lines starting with '#' are skipped
+    private static boolean runScript(Library library, String fileName) {
+        boolean ok = true;
+        try (Reader source = fileName == null ? new InputStreamReader(System.in) : new FileReader(fileName);
+             BufferedReader reader = new BufferedReader(source)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                ok &= runCommand(library, line.split("\\s+"));
+            }
+        } catch (IOException e) {
+            System.err.println("Could not read script: " + e.getMessage());
+            return false;
+        }
+        return ok;
+    }
+
+    private static boolean runCommand(Library library, String[] args) {
+        String command = args[0].toLowerCase();
+        switch (command) {
+            case "list" -> {
+                for (BorrowableItem item : library.getAllItems()) {
+                    item.print();
+                }
+                return true;
+            }
+            case "borrow" -> {
+                if (args.length < 3) {
+                    return fail(USAGE);
+                }
+                User user = library.findUser(args[1]);
+                BorrowableItem item = library.findItem(args[2]);
+                if (user == null || item == null) {
+                    return fail("Unknown user or item: " + args[1] + " " + args[2]);
+                }
+                return report(library.checkout(user, item), "Borrowed " + item.getName() + " for " + user.getName());
+            }
+            case "return" -> {
+                if (args.length < 2) {
+                    return fail(USAGE);
+                }
+                BorrowableItem item = library.findItem(args[1]);
+                if (item == null) {
+                    return fail("Unknown item: " + args[1]);
+                }
+                return report(library.checkin(item), "Returned " + item.getName());
+            }
+            default -> {
+                return fail("Unknown command: " + args[0] + "\n" + USAGE);
+            }
+        }
+    }
+
+    private static boolean report(LoanResult result, String successMessage) {
+        if (result == LoanResult.SUCCESS) {
+            System.out.println(successMessage);
+            return true;
+        }
+        return fail(result + ": " + result.getMessage());
+    }
+
+    private static boolean fail(String message) {
+        System.err.println(message);
+        return false;
+    }
+}
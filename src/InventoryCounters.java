@@ -0,0 +1,119 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Materialized dashboard counters, kept up to date as loans change instead of
+ * being recomputed from getAllItems() on every read.
+ *
+ * Items and users attached by the Library report each change themselves
+ * (BorrowableItem.setBorrowedBy()/returnToLibrary() and User.addLoyaltyPoints()),
+ * so the counters also stay correct on a StandbyReplica that applies events directly.
+ * Counts are read in O(1) and the loyalty leaderboard in O(log n + k).
+ */
+public class InventoryCounters {
+
+    /**
+     * One row of the loyalty leaderboard: a user and their points at the time of the update.
+     */
+    public static class LeaderboardEntry {
+        private final User user;
+        private final int points;
+
+        LeaderboardEntry(User user, int points) {
+            this.user = user;
+            this.points = points;
+        }
+
+        public User getUser() {
+            return user;
+        }
+
+        public int getPoints() {
+            return points;
+        }
+    }
+
+    // Highest points first; ties broken by user ID so each user has exactly one entry
+    private static final Comparator<LeaderboardEntry> BY_POINTS =
+            Comparator.comparingInt(LeaderboardEntry::getPoints).reversed()
+                    .thenComparing(entry -> entry.getUser().getUserId());
+
+    // --- Properties ---
+    private final AtomicInteger totalOnLoan;
+    private final Map<String, AtomicInteger> onLoanByCategory;
+    private final Map<String, AtomicInteger> onLoanByUser;
+    private final ConcurrentSkipListSet<LeaderboardEntry> leaderboard;
+
+    public InventoryCounters() {
+        this.totalOnLoan = new AtomicInteger();
+        this.onLoanByCategory = new ConcurrentHashMap<>();
+        this.onLoanByUser = new ConcurrentHashMap<>();
+        this.leaderboard = new ConcurrentSkipListSet<>(BY_POINTS);
+    }
+
+    // --- Updates (called by BorrowableItem and User) ---
+    void loanStarted(BorrowableItem item, User user) {
+        totalOnLoan.incrementAndGet();
+        onLoanByCategory.computeIfAbsent(item.getCategory(), c -> new AtomicInteger()).incrementAndGet();
+        if (user != null) {
+            onLoanByUser.computeIfAbsent(user.getUserId(), id -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    void loanEnded(BorrowableItem item, User user) {
+        totalOnLoan.decrementAndGet();
+        onLoanByCategory.get(item.getCategory()).decrementAndGet();
+        if (user != null) {
+            onLoanByUser.get(user.getUserId()).decrementAndGet();
+        }
+    }
+
+    void pointsChanged(User user, int oldPoints, int newPoints) {
+        leaderboard.remove(new LeaderboardEntry(user, oldPoints));
+        leaderboard.add(new LeaderboardEntry(user, newPoints));
+    }
+
+    // --- Reads ---
+    public int getTotalOnLoan() {
+        return totalOnLoan.get();
+    }
+
+    public int getOnLoanCount(String category) {
+        AtomicInteger count = onLoanByCategory.get(category);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * On-loan counts for every category seen so far, sorted by category name.
+     */
+    public Map<String, Integer> getOnLoanByCategory() {
+        Map<String, Integer> snapshot = new TreeMap<>();
+        onLoanByCategory.forEach((category, count) -> snapshot.put(category, count.get()));
+        return snapshot;
+    }
+
+    public int getOnLoanCount(User user) {
+        AtomicInteger count = onLoanByUser.get(user.getUserId());
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * The k users with the most loyalty points, highest first.
+     */
+    public List<LeaderboardEntry> getTopUsers(int k) {
+        List<LeaderboardEntry> top = new ArrayList<>(k);
+        for (LeaderboardEntry entry : leaderboard) {
+            if (top.size() == k) {
+                break;
+            }
+            top.add(entry);
+        }
+        return top;
+    }
+}
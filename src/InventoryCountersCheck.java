@@ -0,0 +1,205 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Runnable check of the materialized InventoryCounters: after random mixes of
+ * borrows, returns and point changes (on a primary and on a standby applying the
+ * same events), every counter must match a full scan of getAllItems() and the
+ * users, and the leaderboard must hold exactly one entry per user in points order.
+ * Also covers re-borrowing an item that is already on loan and attaching counters
+ * to an item that is already on loan.
+ * Run from the IDE like Main; exits with status 1 if any check fails.
+ */
+public class InventoryCountersCheck {
+
+    private static final String[][] EXTRA_ITEMS = {
+            {"workshop", "WT002", "Jigsaw", "Corded"},
+            {"workshop", "WT003", "Sander", "Orbital"},
+            {"kitchen", "KA002", "Toaster", "2 Slices"},
+            {"kitchen", "KA003", "Stand Mixer", "5 Litres"},
+            {"garden", "GT002", "Hedge Trimmer", "Electric"},
+            {"garden", "GT003", "Rake", "Leaf"},
+    };
+
+    private static int failures = 0;
+
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 42;
+        int steps = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+
+        checkRandomMix(seed, steps);
+        checkReborrow();
+        checkAttachOnLoan();
+        checkRepeatedPoints();
+        checkStandby(seed, steps);
+
+        System.out.println(failures == 0 ? "All counter checks passed." : failures + " counter check(s) failed.");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    // 1. Random borrows, returns and point changes through the public API
+    private static void checkRandomMix(long seed, int steps) {
+        Library library = Library.createReplica();
+        addExtraItems(library);
+        runRandomMix(library, new Random(seed), steps);
+        checkCounters(library, "random mix");
+    }
+
+    // 2. setBorrowedBy() on an item that is already on loan moves it to the new holder
+    private static void checkReborrow() {
+        Library library = Library.createReplica();
+        User alice = library.findUser("U001");
+        User bob = library.findUser("U002");
+        BorrowableItem drill = library.findItem("WT001");
+        library.borrowItem(alice, drill);
+        drill.setBorrowedBy(bob);
+        drill.setBorrowedBy(bob);
+        InventoryCounters counters = library.getInventoryCounters();
+        check(counters.getOnLoanCount(alice) == 0 && counters.getOnLoanCount(bob) == 1,
+                "re-borrow moves the loan to the new holder");
+        checkCounters(library, "re-borrow");
+        drill.returnToLibrary();
+        drill.returnToLibrary();
+        checkCounters(library, "repeated return");
+    }
+
+    // 3. An item added while already on loan is counted once, and its return is counted
+    private static void checkAttachOnLoan() {
+        Library library = Library.createReplica();
+        User charlie = library.findUser("U003");
+        BorrowableItem toaster = ItemFactory.createItem("kitchen", "KA002", "Toaster", "2 Slices");
+        toaster.setBorrowedBy(charlie);
+        library.addItem(toaster);
+        check(library.getInventoryCounters().getOnLoanCount(charlie) == 1, "item on loan when added is counted");
+        checkCounters(library, "attach on loan");
+        library.returnItem(toaster);
+        checkCounters(library, "return of an item on loan when added");
+    }
+
+    // 4. Points going up, down and back to the same value keep one leaderboard entry per user
+    private static void checkRepeatedPoints() {
+        Library library = Library.createReplica();
+        User alice = library.findUser("U001");
+        User bob = library.findUser("U002");
+        for (int i = 0; i < 100; i++) {
+            library.awardLoyaltyPoints(alice, i % 2 == 0 ? 7 : -7);
+            library.awardLoyaltyPoints(bob, 3);
+            library.awardLoyaltyPoints(bob, 0);
+        }
+        checkCounters(library, "repeated point changes");
+    }
+
+    // 5. The same kind of mix replicated to a standby, whose counters are fed by applied events
+    private static void checkStandby(long seed, int steps) {
+        Library primaryLibrary = Library.createReplica();
+        StandbyReplica standby = new StandbyReplica("counters-standby");
+        // The catalog is not replicated, so both sides get the extra items before replication starts
+        addExtraItems(primaryLibrary);
+        addExtraItems(standby.getLibrary());
+        LoopbackTransport transport = new LoopbackTransport();
+        ReplicationPrimary primary = new ReplicationPrimary(primaryLibrary, transport, 64, 20);
+        primary.addStandby(standby);
+
+        runRandomMix(primaryLibrary, new Random(seed + 1), steps);
+        primary.flush();
+        transport.drain();
+        check(!standby.isDiverged() && standby.getLastAppliedSequence() == primary.getLastSequence(),
+                "standby applied every event");
+        checkCounters(standby.getLibrary(), "standby");
+        check(sameLeaderboard(primaryLibrary, standby.getLibrary()), "standby leaderboard matches the primary");
+
+        primary.stop();
+        transport.close();
+    }
+
+    private static void runRandomMix(Library library, Random random, int steps) {
+        List<BorrowableItem> items = library.getAllItems();
+        List<User> users = library.getAllUsers();
+        for (int i = 0; i < steps; i++) {
+            BorrowableItem item = items.get(random.nextInt(items.size()));
+            User user = users.get(random.nextInt(users.size()));
+            int action = random.nextInt(10);
+            if (action < 4) {
+                library.borrowItem(user, item);
+            } else if (action < 8) {
+                library.returnItem(item);
+            } else {
+                library.awardLoyaltyPoints(user, random.nextInt(21) - 10);
+            }
+        }
+    }
+
+    private static void addExtraItems(Library library) {
+        for (String[] item : EXTRA_ITEMS) {
+            library.addItem(ItemFactory.createItem(item[0], item[1], item[2], item[3]));
+        }
+    }
+
+    // Compares every counter with a full recount from the items and users
+    private static void checkCounters(Library library, String label) {
+        InventoryCounters counters = library.getInventoryCounters();
+        int total = 0;
+        Map<String, Integer> byCategory = new TreeMap<>();
+        Map<String, Integer> byUser = new HashMap<>();
+        for (BorrowableItem item : library.getAllItems()) {
+            byCategory.putIfAbsent(item.getCategory(), 0);
+            if (!item.isAvailable()) {
+                total++;
+                byCategory.merge(item.getCategory(), 1, Integer::sum);
+                byUser.merge(item.getCurrentUser().getUserId(), 1, Integer::sum);
+            }
+        }
+        check(counters.getTotalOnLoan() == total, label + ": total on loan matches a scan");
+
+        boolean categoriesMatch = true;
+        for (Map.Entry<String, Integer> entry : byCategory.entrySet()) {
+            categoriesMatch &= counters.getOnLoanCount(entry.getKey()) == entry.getValue();
+        }
+        check(categoriesMatch, label + ": per-category counts match a scan");
+
+        boolean usersMatch = true;
+        for (User user : library.getAllUsers()) {
+            usersMatch &= counters.getOnLoanCount(user) == byUser.getOrDefault(user.getUserId(), 0);
+        }
+        check(usersMatch, label + ": per-user counts match a scan");
+
+        List<User> users = library.getAllUsers();
+        List<InventoryCounters.LeaderboardEntry> top = counters.getTopUsers(users.size() + 1);
+        List<User> expected = new ArrayList<>(users);
+        expected.sort(Comparator.comparingInt(User::getLoyaltyPoints).reversed().thenComparing(User::getUserId));
+        boolean leaderboardMatches = top.size() == expected.size();
+        for (int i = 0; leaderboardMatches && i < top.size(); i++) {
+            leaderboardMatches = top.get(i).getUser() == expected.get(i)
+                    && top.get(i).getPoints() == expected.get(i).getLoyaltyPoints();
+        }
+        check(leaderboardMatches, label + ": leaderboard has one entry per user in points order");
+    }
+
+    private static boolean sameLeaderboard(Library a, Library b) {
+        int k = a.getAllUsers().size() + 1;
+        List<InventoryCounters.LeaderboardEntry> left = a.getInventoryCounters().getTopUsers(k);
+        List<InventoryCounters.LeaderboardEntry> right = b.getInventoryCounters().getTopUsers(k);
+        if (left.size() != right.size()) {
+            return false;
+        }
+        for (int i = 0; i < left.size(); i++) {
+            if (!left.get(i).getUser().getUserId().equals(right.get(i).getUser().getUserId())
+                    || left.get(i).getPoints() != right.get(i).getPoints()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void check(boolean condition, String description) {
+        System.out.println((condition ? "PASS: " : "FAIL: ") + description);
+        if (!condition) {
+            failures++;
+        }
+    }
+}
@@ -30,6 +30,11 @@ public class KitchenAppliance extends BorrowableItem {
         return capacity;
     }
 
+    @Override
+    public String getCategory() {
+        return "Kitchen Appliance";
+    }
+
     // --- Overridden Method ---
     /**
      * Provides a specific implementation for the print() method.
@@ -1,55 +1,348 @@
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class Library {
 
     // --- Singleton Pattern Implementation ---
-    private static Library instance;
+    // volatile so every thread sees a promoted replica as soon as promote() returns
+    private static volatile Library instance;
 
     // --- Properties ---
+    // The catalog, user store and console Scanner are created on first use (see
+    // ensureCatalog()/ensureUsers()), so a headless batch job only pays for what it touches
     private List<BorrowableItem> allItems;
+    // Lookup by upper-cased item ID so findItem() does not scan the whole catalog
+    private Map<String, BorrowableItem> itemIndex;
+    private volatile boolean catalogLoaded;
     private List<User> registeredUsers;
+    private Map<String, User> userIndex;
+    private volatile boolean usersLoaded;
     private User activeUser;
     private Scanner inputScanner;
+    // Observers notified of every borrow/return/points change (e.g. replication)
+    private List<LoanListener> loanListeners;
+    private CoBorrowRecommender recommender;
+    private AdmissionController admissionController;
+    private InventoryCounters inventoryCounters;
+    // Set when a standby has been promoted in this library's place; all writes are then rejected
+    private volatile boolean fenced;
+    // Set while a ReplicationPrimary follows this library; catalog changes are not replicated
+    private volatile boolean replicating;
+
+    // Loyalty points earned for each successful borrow
+    public static final int BORROW_POINTS = 10;
 
     // Private constructor prevents "new Library()" from outside
     private Library() {
-        this.allItems = new ArrayList<>();
-        this.registeredUsers = new ArrayList<>();
-        this.inputScanner = new Scanner(System.in);
-        populateInitialItems();
-        populateUsers();
+        this.loanListeners = new CopyOnWriteArrayList<>();
+        this.admissionController = new AdmissionController();
+        this.inventoryCounters = new InventoryCounters();
+        this.recommender = new CoBorrowRecommender();
+        this.loanListeners.add(recommender);
     }
 
     // Public method to get the single instance
     public static Library getInstance() {
-        if (instance == null) {
-            instance = new Library();
+        Library current = instance;
+        if (current == null) {
+            synchronized (Library.class) {
+                current = instance;
+                if (current == null) {
+                    current = new Library();
+                    instance = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Builds a separate Library with the same seed data as the singleton.
+     * Used by a StandbyReplica so it can apply shipped events to its own copy.
+     */
+    public static Library createReplica() {
+        return new Library();
+    }
+
+    /**
+     * Failover: makes the given replica the instance returned by getInstance() and
+     * fences the old instance, so code still holding it (such as an open LibraryGUI)
+     * gets LoanResult.FENCED instead of making loans that would never be replicated.
+     */
+    public static synchronized void promote(Library replica) {
+        Library old = instance;
+        if (old != null && old != replica) {
+            old.fence();
         }
-        return instance;
+        instance = replica;
+    }
+
+    /**
+     * Stops this library accepting any more borrows, returns or points.
+     * Waits for a write already in progress to finish.
+     */
+    public synchronized void fence() {
+        this.fenced = true;
+    }
+
+    public boolean isFenced() {
+        return fenced;
     }
 
     // --- Sprint 3 Helper Methods ---
     // These allow the GUI to access your data
     public List<BorrowableItem> getAllItems() {
+        ensureCatalog();
         return allItems;
     }
 
     public User getActiveUser() {
+        ensureUsers();
         return activeUser;
     }
 
     // Added for User Switcher feature
     public List<User> getAllUsers() {
+        ensureUsers();
         return registeredUsers;
     }
 
     public void setActiveUser(User user) {
+        ensureUsers();
         this.activeUser = user;
     }
 
+    /**
+     * Adds an item to the catalog.
+     * @throws IllegalStateException while a ReplicationPrimary is attached, because
+     *         catalog changes are not shipped and the standbys would diverge.
+     */
+    public void addItem(BorrowableItem item) {
+        if (replicating) {
+            throw new IllegalStateException("Cannot add items while replication is running: standbys would diverge");
+        }
+        ensureCatalog();
+        indexItem(item);
+    }
+
+    // Called by ReplicationPrimary when it starts and stops following this library
+    void setReplicating(boolean replicating) {
+        this.replicating = replicating;
+    }
+
+    public BorrowableItem findItem(String itemId) {
+        ensureCatalog();
+        return itemIndex.get(itemId.toUpperCase());
+    }
+
+    public User findUser(String userId) {
+        ensureUsers();
+        return userIndex.get(userId.toUpperCase());
+    }
+
+    /**
+     * Items most often borrowed alongside the given one, strongest first.
+     * @param limit The maximum number of suggestions to return.
+     */
+    public List<BorrowableItem> getRecommendations(BorrowableItem item, int limit) {
+        List<BorrowableItem> suggestions = new ArrayList<>();
+        for (String id : recommender.recommend(item.getItemID(), limit)) {
+            BorrowableItem suggestion = findItem(id);
+            if (suggestion != null) {
+                suggestions.add(suggestion);
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Live on-loan counts and loyalty leaderboard for dashboards; reads do not scan the catalog.
+     */
+    public InventoryCounters getInventoryCounters() {
+        ensureCatalog();
+        ensureUsers();
+        return inventoryCounters;
+    }
+
+    public AdmissionController getAdmissionController() {
+        return admissionController;
+    }
+
+    public void setAdmissionController(AdmissionController admissionController) {
+        this.admissionController = admissionController;
+    }
+
+    public void addLoanListener(LoanListener listener) {
+        loanListeners.add(listener);
+    }
+
+    public void removeLoanListener(LoanListener listener) {
+        loanListeners.remove(listener);
+    }
+
+    // --- Booking Logic (shared by the console, the GUI and replication) ---
+
+    /**
+     * Front door for borrowing: applies the per-user rate limit and the global
+     * concurrency limit before running borrowItem().
+     */
+    public LoanResult checkout(User user, BorrowableItem item) {
+        if (fenced) {
+            return LoanResult.FENCED;
+        }
+        if (user == null || item == null) {
+            return LoanResult.UNAVAILABLE;
+        }
+        return admissionController.admitBorrow(user, () -> borrowItem(user, item));
+    }
+
+    /**
+     * Front door for returning: applies the global concurrency limit before
+     * running returnItem().
+     */
+    public LoanResult checkin(BorrowableItem item) {
+        if (fenced) {
+            return LoanResult.FENCED;
+        }
+        if (item == null) {
+            return LoanResult.UNAVAILABLE;
+        }
+        return admissionController.admitReturn(() -> returnItem(item));
+    }
+
+    /**
+     * Lends an item to a user and awards the borrow loyalty points.
+     * Does no admission control; callers facing members should use checkout().
+     * @return true if the item was available and is now on loan to the user
+     *         (always false once this library is fenced).
+     */
+    public synchronized boolean borrowItem(User user, BorrowableItem item) {
+        if (fenced || user == null || item == null || !item.isAvailable()) {
+            return false;
+        }
+        lend(user, item);
+        awardLoyaltyPoints(user, BORROW_POINTS);
+        return true;
+    }
+
+    /**
+     * Takes an item back from whoever currently holds it.
+     * Does no admission control; callers facing members should use checkin().
+     * @return true if the item was on loan and is now available again
+     *         (always false once this library is fenced).
+     */
+    public synchronized boolean returnItem(BorrowableItem item) {
+        if (fenced || item == null || item.isAvailable()) {
+            return false;
+        }
+        takeBack(item);
+        return true;
+    }
+
+    /**
+     * @return false if the points were not awarded because this library is fenced.
+     */
+    public synchronized boolean awardLoyaltyPoints(User user, int points) {
+        if (fenced) {
+            return false;
+        }
+        addPoints(user, points);
+        return true;
+    }
+
+    // --- Replicated Changes (used by StandbyReplica) ---
+    // These apply an event shipped from the primary after the replica has checked it fits.
+    // Listeners such as the recommender are notified as for a local change, but points are
+    // only added by their own POINTS event, never as a side effect of a borrow.
+
+    synchronized void applyReplicatedBorrow(User user, BorrowableItem item) {
+        lend(user, item);
+    }
+
+    synchronized void applyReplicatedReturn(BorrowableItem item) {
+        takeBack(item);
+    }
+
+    synchronized void applyReplicatedPoints(User user, int points) {
+        addPoints(user, points);
+    }
+
+    private void lend(User user, BorrowableItem item) {
+        item.setBorrowedBy(user);
+        user.borrow(item);
+        for (LoanListener listener : loanListeners) {
+            listener.onBorrow(user, item);
+        }
+    }
+
+    private void takeBack(BorrowableItem item) {
+        User holder = item.getCurrentUser();
+        item.returnToLibrary();
+        if (holder != null) {
+            holder.returnItem(item);
+        }
+        for (LoanListener listener : loanListeners) {
+            listener.onReturn(holder, item);
+        }
+    }
+
+    private void addPoints(User user, int points) {
+        user.addLoyaltyPoints(points);
+        for (LoanListener listener : loanListeners) {
+            listener.onPointsAwarded(user, points);
+        }
+    }
+
     // --- Initialization Logic ---
+    private void ensureCatalog() {
+        if (!catalogLoaded) {
+            synchronized (this) {
+                if (!catalogLoaded) {
+                    this.allItems = new ArrayList<>();
+                    this.itemIndex = new HashMap<>();
+                    populateInitialItems();
+                    catalogLoaded = true;
+                }
+            }
+        }
+    }
+
+    private void ensureUsers() {
+        if (!usersLoaded) {
+            synchronized (this) {
+                if (!usersLoaded) {
+                    this.registeredUsers = new ArrayList<>();
+                    this.userIndex = new HashMap<>();
+                    populateUsers();
+                    usersLoaded = true;
+                }
+            }
+        }
+    }
+
+    private Scanner getInputScanner() {
+        if (inputScanner == null) {
+            inputScanner = new Scanner(System.in);
+        }
+        return inputScanner;
+    }
+
+    private void indexItem(BorrowableItem item) {
+        allItems.add(item);
+        itemIndex.put(item.getItemID().toUpperCase(), item);
+        item.attachCounters(inventoryCounters);
+    }
+
+    private void registerUser(User user) {
+        registeredUsers.add(user);
+        userIndex.put(user.getUserId().toUpperCase(), user);
+        user.attachCounters(inventoryCounters);
+    }
+
     private void populateInitialItems() {
         // Use the FACTORY PATTERN to create items
         BorrowableItem drill = ItemFactory.createItem("workshop", "WT001", "Cordless Drill", "Battery");
@@ -57,15 +350,15 @@ public class Library {
             ((WorkshopTool) drill).addRequiredEquipment(new Equipment("Safety Goggles"));
         }
 
-        allItems.add(drill);
-        allItems.add(ItemFactory.createItem("kitchen", "KA001", "High-Speed Blender", "1.5 Litres"));
-        allItems.add(ItemFactory.createItem("garden", "GT001", "Digging Spade", "Carbon Steel"));
+        indexItem(drill);
+        indexItem(ItemFactory.createItem("kitchen", "KA001", "High-Speed Blender", "1.5 Litres"));
+        indexItem(ItemFactory.createItem("garden", "GT001", "Digging Spade", "Carbon Steel"));
     }
 
     private void populateUsers() {
-        registeredUsers.add(new User("U001", "Alice Smith"));
-        registeredUsers.add(new User("U002", "Bob Jones"));
-        registeredUsers.add(new User("U003", "Charlie Brown"));
+        registerUser(new User("U001", "Alice Smith"));
+        registerUser(new User("U002", "Bob Jones"));
+        registerUser(new User("U003", "Charlie Brown"));
 
         // Default active user for the GUI to start with
         this.activeUser = registeredUsers.get(0);
@@ -98,13 +391,13 @@ public class Library {
 
     private void selectActiveUser() {
         System.out.println("\n--- User Selection ---");
-        for (User u : registeredUsers) {
+        for (User u : getAllUsers()) {
             System.out.println("- " + u.getUserId() + ": " + u.getName());
         }
         System.out.print("Enter User ID to login: ");
-        String id = inputScanner.hasNextLine() ? inputScanner.nextLine().trim() : "";
+        String id = getInputScanner().hasNextLine() ? getInputScanner().nextLine().trim() : "";
 
-        for (User u : registeredUsers) {
+        for (User u : getAllUsers()) {
             if (u.getUserId().equalsIgnoreCase(id)) {
                 this.activeUser = u;
                 System.out.println("Welcome, " + activeUser.getName() + "!");
@@ -112,42 +405,41 @@ public class Library {
             }
         }
         System.out.println("User not found. Defaulting to Alice Smith.");
-        this.activeUser = registeredUsers.get(0);
+        this.activeUser = getAllUsers().get(0);
     }
 
     private void borrowItem() {
         System.out.println("\n--- Borrow an Item ---");
-        for (BorrowableItem item : allItems) {
+        for (BorrowableItem item : getAllItems()) {
             if (item.isAvailable()) {
                 System.out.println(item.getItemID() + ": " + item.getName());
             }
         }
         System.out.print("Enter ID to borrow: ");
-        String id = inputScanner.nextLine().trim();
+        String id = getInputScanner().nextLine().trim();
 
-        for (BorrowableItem item : allItems) {
-            if (item.getItemID().equalsIgnoreCase(id)) {
-                if (item.isAvailable()) {
-                    item.setBorrowedBy(activeUser);
-                    activeUser.borrow(item);
-                    activeUser.addLoyaltyPoints(10);
-                    System.out.println("Success! You borrowed " + item.getName());
-                } else {
-                    System.out.println("Item is not available.");
-                }
-                return;
-            }
+        BorrowableItem item = findItem(id);
+        if (item == null) {
+            return;
+        }
+        LoanResult result = checkout(getActiveUser(), item);
+        if (result == LoanResult.SUCCESS) {
+            System.out.println("Success! You borrowed " + item.getName());
+        } else if (result == LoanResult.UNAVAILABLE) {
+            System.out.println("Item is not available.");
+        } else {
+            System.out.println(result.getMessage());
         }
     }
 
     private void returnItem() {
-        List<BorrowableItem> userItems = activeUser.getBorrowedItems();
+        List<BorrowableItem> userItems = getActiveUser().getBorrowedItems();
         if (userItems.isEmpty()) {
             System.out.println("You have no items to return.");
             return;
         }
         System.out.print("Enter ID to return: ");
-        String id = inputScanner.nextLine().trim();
+        String id = getInputScanner().nextLine().trim();
 
         BorrowableItem toReturn = null;
         for (BorrowableItem item : userItems) {
@@ -158,9 +450,12 @@ public class Library {
         }
 
         if (toReturn != null) {
-            toReturn.returnToLibrary();
-            activeUser.returnItem(toReturn);
-            System.out.println("Item returned successfully.");
+            LoanResult result = checkin(toReturn);
+            if (result == LoanResult.SUCCESS) {
+                System.out.println("Item returned successfully.");
+            } else {
+                System.out.println(result.getMessage());
+            }
         }
     }
 
@@ -170,11 +465,11 @@ public class Library {
     }
 
     private int getUserChoice() {
-        try { return Integer.parseInt(inputScanner.nextLine()); }
+        try { return Integer.parseInt(getInputScanner().nextLine()); }
         catch (Exception e) { return -1; }
     }
 
     private void printAllItems() {
-        for (BorrowableItem item : allItems) item.print();
+        for (BorrowableItem item : getAllItems()) item.print();
     }
 }
\ No newline at end of file
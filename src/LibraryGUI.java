@@ -8,14 +8,23 @@ import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public class LibraryGUI extends Application {
 
+    // How many co-borrow suggestions to show in the details panel
+    private static final int RECOMMENDATION_COUNT = 3;
+    // How many users to show on the loyalty leaderboard in the header
+    private static final int LEADERBOARD_SIZE = 3;
+
+    // Resolved once at start-up: after a replication failover this instance is fenced,
+    // so borrows and returns report LoanResult.FENCED until the GUI is restarted
     private Library library = Library.getInstance();
     private ListView<BorrowableItem> itemListView = new ListView<>();
     private Label statusBar = new Label("System Ready");
     private Label userInfoLabel = new Label();
+    private Label dashboardLabel = new Label();
     private Label detailsLabel = new Label("Select an item to see details");
     private ComboBox<User> userComboBox = new ComboBox<>();
 
@@ -41,11 +50,14 @@ public class LibraryGUI extends Application {
         });
 
         userInfoLabel.getStyleClass().add("user-info"); // CSS Class
+        dashboardLabel.getStyleClass().add("dashboard-info"); // CSS Class
         updateUserInfo();
 
         Region spacer = new Region();
         HBox.setHgrow(spacer, Priority.ALWAYS);
-        topBar.getChildren().addAll(title, new Label("Switch User:"), userComboBox, spacer, userInfoLabel);
+        VBox headerInfo = new VBox(4, userInfoLabel, dashboardLabel);
+        headerInfo.setAlignment(Pos.CENTER_RIGHT);
+        topBar.getChildren().addAll(title, new Label("Switch User:"), userComboBox, spacer, headerInfo);
         root.setTop(topBar);
 
         // --- CENTER: Inventory Management ---
@@ -134,6 +146,30 @@ public class LibraryGUI extends Application {
     private void updateUserInfo() {
         User active = library.getActiveUser();
         userInfoLabel.setText("Logged in: " + active.getName() + " | Loyalty Points: " + active.getLoyaltyPoints());
+        updateDashboard();
+    }
+
+    // Reads the materialized counters, so this is cheap enough to call after every change
+    private void updateDashboard() {
+        InventoryCounters counters = library.getInventoryCounters();
+        StringBuilder sb = new StringBuilder();
+        sb.append("On Loan: ").append(counters.getTotalOnLoan());
+
+        Map<String, Integer> byCategory = counters.getOnLoanByCategory();
+        if (!byCategory.isEmpty()) {
+            sb.append(" (");
+            sb.append(byCategory.entrySet().stream()
+                    .map(entry -> entry.getKey() + " " + entry.getValue())
+                    .collect(Collectors.joining(", ")));
+            sb.append(")");
+        }
+        sb.append(" | Your Loans: ").append(counters.getOnLoanCount(library.getActiveUser()));
+
+        sb.append(" | Top: ");
+        sb.append(counters.getTopUsers(LEADERBOARD_SIZE).stream()
+                .map(entry -> entry.getUser().getName() + " (" + entry.getPoints() + ")")
+                .collect(Collectors.joining(", ")));
+        dashboardLabel.setText(sb.toString());
     }
 
     private void updateDetailsArea(BorrowableItem item) {
@@ -158,6 +194,14 @@ public class LibraryGUI extends Application {
             sb.append("Material: ").append(gardenTool.getMaterial());
         }
 
+        List<BorrowableItem> suggestions = library.getRecommendations(item, RECOMMENDATION_COUNT);
+        if (!suggestions.isEmpty()) {
+            sb.append("\n\nOften borrowed with:");
+            for (BorrowableItem suggestion : suggestions) {
+                sb.append("\n- ").append(suggestion.getName());
+            }
+        }
+
         detailsLabel.setText(sb.toString());
     }
 
@@ -181,27 +225,35 @@ public class LibraryGUI extends Application {
 
     private void handleBorrow() {
         BorrowableItem selected = itemListView.getSelectionModel().getSelectedItem();
-        if (selected != null && selected.isAvailable()) {
-            selected.setBorrowedBy(library.getActiveUser());
-            library.getActiveUser().addLoyaltyPoints(10);
-            statusBar.setText("SUCCESS: Successfully borrowed " + selected.getName() + ". You earned 10 loyalty points!");
+        if (selected == null) {
+            return;
+        }
+        LoanResult result = library.checkout(library.getActiveUser(), selected);
+        if (result == LoanResult.SUCCESS) {
+            statusBar.setText("SUCCESS: Successfully borrowed " + selected.getName() + ". You earned " + Library.BORROW_POINTS + " loyalty points!");
             updateUserInfo();
             updateDetailsArea(selected);
             itemListView.refresh();
-        } else if (selected != null) {
+        } else if (result == LoanResult.UNAVAILABLE) {
             statusBar.setText("ERROR: The item '" + selected.getName() + "' is currently unavailable.");
+        } else {
+            statusBar.setText("ERROR: " + result.getMessage());
         }
     }
 
     private void handleReturn() {
         BorrowableItem selected = itemListView.getSelectionModel().getSelectedItem();
-        if (selected != null && !selected.isAvailable()) {
-            selected.returnToLibrary();
-            library.getActiveUser().returnItem(selected);
+        if (selected == null || selected.isAvailable()) {
+            return;
+        }
+        LoanResult result = library.checkin(selected);
+        if (result == LoanResult.SUCCESS) {
             statusBar.setText("SUCCESS: Successfully returned " + selected.getName() + " to the inventory.");
             updateUserInfo();
             updateDetailsArea(selected);
             itemListView.refresh();
+        } else if (result != LoanResult.UNAVAILABLE) {
+            statusBar.setText("ERROR: " + result.getMessage());
         }
     }
 }
\ No newline at end of file
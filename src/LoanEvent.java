@@ -0,0 +1,55 @@
+/**
+ * A single entry in the replication log shipped from the primary to its standbys.
+ * Events refer to users and items by ID so a standby can apply them to its own Library.
+ */
+public class LoanEvent {
+
+    public enum Type { BORROW, RETURN, POINTS }
+
+    // --- Properties ---
+    private final long sequence;
+    private final Type type;
+    private final String userId;
+    private final String itemId;
+    private final int points;
+    // System.nanoTime() on the primary when the event was logged, used to measure lag
+    private final long createdNanos;
+
+    public LoanEvent(long sequence, Type type, String userId, String itemId, int points) {
+        this.sequence = sequence;
+        this.type = type;
+        this.userId = userId;
+        this.itemId = itemId;
+        this.points = points;
+        this.createdNanos = System.nanoTime();
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    public int getPoints() {
+        return points;
+    }
+
+    public long getCreatedNanos() {
+        return createdNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + sequence + " " + type + " user=" + userId + " item=" + itemId + " points=" + points;
+    }
+}
@@ -0,0 +1,14 @@
+/**
+ * Observer Pattern: notified by the Library whenever loan state changes.
+ * Implemented by components that need to follow every borrow/return,
+ * such as the replication primary.
+ */
+public interface LoanListener {
+
+    void onBorrow(User user, BorrowableItem item);
+
+    // The user is the holder at the time of return (may be null for orphaned loans)
+    void onReturn(User user, BorrowableItem item);
+
+    void onPointsAwarded(User user, int points);
+}
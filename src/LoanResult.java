@@ -0,0 +1,25 @@
+/**
+ * Outcome of a borrow or return request made through Library.checkout()/checkin().
+ */
+public enum LoanResult {
+
+    SUCCESS("Request completed."),
+    // The item is already on loan (borrow) or not on loan (return)
+    UNAVAILABLE("The item is not in the right state for this request."),
+    // The user has borrowed too much in a short time
+    RATE_LIMITED("Too many borrow requests. Please wait a moment and try again."),
+    // The library is at its concurrency limit and the request was shed
+    OVERLOADED("The library is busy right now. Please try again shortly."),
+    // This library was replaced by a promoted standby and no longer accepts changes
+    FENCED("This library has been taken over by a standby. Please restart the application.");
+
+    private final String message;
+
+    LoanResult(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,111 @@
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * In-process stand-in for a network link between primary and standbys.
+ * Batches are queued and applied on a separate delivery thread, so the primary
+ * never waits for the standbys and replication lag can be observed as it would be
+ * over a real connection.
+ */
+public class LoopbackTransport implements ReplicationTransport {
+
+    // Marks the end of the stream so the delivery thread can exit
+    private static final List<LoanEvent> SHUTDOWN = List.of();
+
+    // --- Properties ---
+    private final List<StandbyReplica> standbys;
+    private final BlockingQueue<List<LoanEvent>> inFlight;
+    private final Thread deliveryThread;
+    private volatile boolean closed;
+    // Batches shipped but not yet applied; guarded by deliveryLock
+    private int undelivered;
+    private final Object deliveryLock = new Object();
+
+    public LoopbackTransport() {
+        this.standbys = new CopyOnWriteArrayList<>();
+        this.inFlight = new LinkedBlockingQueue<>();
+        this.deliveryThread = new Thread(this::deliverLoop, "replication-loopback");
+        this.deliveryThread.setDaemon(true);
+        this.deliveryThread.start();
+    }
+
+    @Override
+    public void connect(StandbyReplica standby) {
+        standbys.add(standby);
+    }
+
+    @Override
+    public void disconnect(StandbyReplica standby) {
+        standbys.remove(standby);
+    }
+
+    @Override
+    public void ship(List<LoanEvent> batch) {
+        if (closed) {
+            throw new IllegalStateException("Transport is closed");
+        }
+        synchronized (deliveryLock) {
+            undelivered++;
+        }
+        inFlight.add(batch);
+    }
+
+    @Override
+    public void drain() {
+        synchronized (deliveryLock) {
+            while (undelivered > 0) {
+                try {
+                    deliveryLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of batches shipped but not yet handed to the standbys.
+     */
+    public int getPendingBatches() {
+        synchronized (deliveryLock) {
+            return undelivered;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        inFlight.add(SHUTDOWN);
+        try {
+            deliveryThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void deliverLoop() {
+        try {
+            while (true) {
+                List<LoanEvent> batch = inFlight.take();
+                if (batch == SHUTDOWN) {
+                    return;
+                }
+                for (StandbyReplica standby : standbys) {
+                    standby.apply(batch);
+                }
+                synchronized (deliveryLock) {
+                    undelivered--;
+                    deliveryLock.notifyAll();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
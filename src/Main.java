@@ -1,7 +1,19 @@
 import javafx.application.Application;
 
+import java.util.Arrays;
+
 public class Main {
     public static void main(String[] args) {
+        // "--headless" skips JavaFX entirely (see HeadlessMain for the batch commands)
+        if (args.length > 0 && args[0].equals("--headless")) {
+            HeadlessMain.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // "--startup-probe" is used by StartupBenchmark to time the GUI launch path
+        if (args.length > 0 && args[0].equals("--startup-probe")) {
+            Application.launch(GuiStartupProbe.class, Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         // This launches the JavaFX GUI instead of the console menu
         Application.launch(LibraryGUI.class, args);
     }
@@ -0,0 +1,57 @@
+import java.util.List;
+
+/**
+ * Measures primary throughput and standby replication lag under sustained
+ * borrow/return load, using the in-process LoopbackTransport.
+ * Run from the IDE like Main; pass the number of loan cycles as the first argument.
+ */
+public class ReplicationBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int cycles = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        Library primaryLibrary = Library.getInstance();
+        LoopbackTransport transport = new LoopbackTransport();
+        ReplicationPrimary primary = new ReplicationPrimary(primaryLibrary, transport);
+        StandbyReplica standby = new StandbyReplica("standby-1");
+        primary.addStandby(standby);
+
+        List<BorrowableItem> items = primaryLibrary.getAllItems();
+        List<User> users = primaryLibrary.getAllUsers();
+        long maxLagEvents = 0;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < cycles; i++) {
+            BorrowableItem item = items.get(i % items.size());
+            User user = users.get(i % users.size());
+            primaryLibrary.borrowItem(user, item);
+            primaryLibrary.returnItem(item);
+            if (i % 10_000 == 0) {
+                maxLagEvents = Math.max(maxLagEvents, primary.getLagInEvents(standby));
+            }
+        }
+        primary.flush();
+        long elapsed = System.nanoTime() - start;
+
+        while (primary.getLagInEvents(standby) > 0) {
+            Thread.sleep(1);
+        }
+        long caughtUp = System.nanoTime() - start;
+        transport.close();
+
+        System.out.println("=== Replication Benchmark ===");
+        System.out.println("Events shipped:       " + primary.getLastSequence() + " in " + primary.getBatchesShipped() + " batches");
+        System.out.printf("Primary throughput:   %.0f events/s%n", primary.getLastSequence() / (elapsed / 1e9));
+        System.out.printf("Standby caught up in: %.1f ms after the last event%n", (caughtUp - elapsed) / 1e6);
+        System.out.println("Max lag (events):     " + maxLagEvents);
+        System.out.printf("Max lag (time):       %.3f ms%n", standby.getMaxLagNanos() / 1e6);
+        System.out.printf("Last lag (time):      %.3f ms%n", standby.getLastLagNanos() / 1e6);
+
+        boolean consistent = true;
+        for (User u : users) {
+            User copy = standby.getLibrary().findUser(u.getUserId());
+            consistent &= copy.getLoyaltyPoints() == u.getLoyaltyPoints();
+        }
+        System.out.println("Standby consistent:   " + consistent);
+    }
+}
@@ -0,0 +1,148 @@
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Runnable end-to-end check of replication over the LoopbackTransport:
+ * events are shipped (including a partial batch by the flush timer), applied on
+ * the standby, the standby is promoted, later batches are ignored once it is
+ * fenced, its state matches the old primary, and the old primary rejects writes.
+ * Run from the IDE like Main; exits with status 1 if any check fails.
+ */
+public class ReplicationFailoverCheck {
+
+    private static int failures = 0;
+
+    public static void main(String[] args) throws InterruptedException {
+        Library primaryLibrary = Library.getInstance();
+        LoopbackTransport transport = new LoopbackTransport();
+        ReplicationPrimary primary = new ReplicationPrimary(primaryLibrary, transport, 64, 20);
+        StandbyReplica standby = new StandbyReplica("standby-1");
+        primary.addStandby(standby);
+
+        // 1. Ship and apply: fewer events than a batch, so only the flush timer ships them
+        User alice = primaryLibrary.findUser("U001");
+        User bob = primaryLibrary.findUser("U002");
+        primaryLibrary.checkout(alice, primaryLibrary.findItem("WT001"));
+        primaryLibrary.checkout(bob, primaryLibrary.findItem("KA001"));
+        long deadline = System.currentTimeMillis() + 2000;
+        while (primary.getLagInEvents(standby) > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        check(primary.getLagInEvents(standby) == 0, "partial batch shipped by the flush timer");
+        check(!standby.getLibrary().findItem("WT001").isAvailable(), "standby applied the borrow");
+
+        // 2. More changes, then a planned failover
+        primaryLibrary.checkin(primaryLibrary.findItem("WT001"));
+        primaryLibrary.checkout(alice, primaryLibrary.findItem("GT001"));
+        Library promoted = primary.handOver(standby);
+        check(standby.isPromoted(), "standby is promoted");
+        check(Library.getInstance() == promoted, "getInstance() returns the promoted library");
+        check(standby.getLastAppliedSequence() == primary.getLastSequence(), "all events applied before promotion");
+        checkSameState(primaryLibrary, promoted);
+        check(!promoted.getRecommendations(promoted.findItem("GT001"), 3).isEmpty(), "standby recommender learned from replicated borrows");
+
+        // The old primary is fenced: writes are rejected instead of being silently lost
+        BorrowableItem blender = primaryLibrary.findItem("KA001");
+        check(primaryLibrary.isFenced(), "old primary is fenced");
+        check(primaryLibrary.checkout(alice, primaryLibrary.findItem("WT001")) == LoanResult.FENCED, "old primary rejects checkout");
+        check(primaryLibrary.checkin(blender) == LoanResult.FENCED, "old primary rejects checkin");
+        check(!primaryLibrary.borrowItem(alice, primaryLibrary.findItem("WT001")), "old primary rejects borrowItem");
+        check(!blender.isAvailable(), "rejected checkin left the item unchanged");
+
+        // 3. Fencing: a late batch from the old primary must be ignored
+        int pointsBefore = promoted.findUser("U001").getLoyaltyPoints();
+        long appliedBefore = standby.getLastAppliedSequence();
+        transport.ship(List.of(new LoanEvent(appliedBefore + 1, LoanEvent.Type.POINTS, "U001", null, 999)));
+        transport.drain();
+        check(promoted.findUser("U001").getLoyaltyPoints() == pointsBefore, "fenced standby ignores later points");
+        check(standby.getLastAppliedSequence() == appliedBefore, "fenced standby does not advance its sequence");
+
+        transport.close();
+
+        checkDivergence();
+        checkClosedTransport();
+        System.out.println(failures == 0 ? "All replication checks passed." : failures + " replication check(s) failed.");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    // A standby that receives an event it cannot apply must stop and refuse promotion
+    private static void checkDivergence() {
+        Library primaryLibrary = Library.createReplica();
+        LoopbackTransport transport = new LoopbackTransport();
+        ReplicationPrimary primary = new ReplicationPrimary(primaryLibrary, transport, 64, 20);
+        StandbyReplica standby = new StandbyReplica("standby-2");
+        primary.addStandby(standby);
+
+        boolean rejected = false;
+        try {
+            primaryLibrary.addItem(ItemFactory.createItem("kitchen", "KA002", "Toaster", "2 Slices"));
+        } catch (IllegalStateException e) {
+            rejected = true;
+        }
+        check(rejected, "catalog additions are rejected while replicating");
+
+        primaryLibrary.checkout(primaryLibrary.findUser("U001"), primaryLibrary.findItem("WT001"));
+        primary.flush();
+        transport.drain();
+        long applied = standby.getLastAppliedSequence();
+        transport.ship(List.of(new LoanEvent(applied + 1, LoanEvent.Type.BORROW, "U001", "NO-SUCH-ITEM", 0),
+                new LoanEvent(applied + 2, LoanEvent.Type.POINTS, "U001", null, 5)));
+        transport.drain();
+        check(standby.isDiverged(), "unknown item marks the standby diverged");
+        check(standby.getLastAppliedSequence() == applied, "diverged standby stops advancing");
+
+        boolean refused = false;
+        try {
+            standby.promote(transport);
+        } catch (IllegalStateException e) {
+            refused = true;
+        }
+        check(refused && !standby.isPromoted(), "diverged standby refuses promotion");
+        primary.stop();
+        transport.close();
+    }
+
+    // Shipping failures must not reach the checkout path or stop the flush timer
+    private static void checkClosedTransport() throws InterruptedException {
+        Library primaryLibrary = Library.createReplica();
+        LoopbackTransport transport = new LoopbackTransport();
+        ReplicationPrimary primary = new ReplicationPrimary(primaryLibrary, transport, 2, 10);
+        transport.close();
+
+        LoanResult result = primaryLibrary.checkout(primaryLibrary.findUser("U002"), primaryLibrary.findItem("GT001"));
+        check(result == LoanResult.SUCCESS, "checkout succeeds while the transport is closed");
+        check(primaryLibrary.findUser("U002").getLoyaltyPoints() == Library.BORROW_POINTS, "points still awarded");
+        Thread.sleep(50); // let the timer retry a few times
+        check(primary.getUnshippedCount() == 2 && primary.getShipFailure() != null, "unshipped events are kept");
+
+        boolean refused = false;
+        try {
+            primary.handOver(new StandbyReplica("standby-3"));
+        } catch (IllegalStateException e) {
+            refused = true;
+        }
+        check(refused, "handover refuses while events are unshipped");
+    }
+
+    private static void checkSameState(Library expected, Library actual) {
+        for (BorrowableItem item : expected.getAllItems()) {
+            BorrowableItem copy = actual.findItem(item.getItemID());
+            String expectedHolder = item.getCurrentUser() == null ? null : item.getCurrentUser().getUserId();
+            String actualHolder = copy.getCurrentUser() == null ? null : copy.getCurrentUser().getUserId();
+            check(copy.isAvailable() == item.isAvailable()
+                    && Objects.equals(expectedHolder, actualHolder), "item " + item.getItemID() + " matches");
+        }
+        for (User user : expected.getAllUsers()) {
+            User copy = actual.findUser(user.getUserId());
+            check(copy.getLoyaltyPoints() == user.getLoyaltyPoints()
+                    && copy.getBorrowedItems().size() == user.getBorrowedItems().size(), "user " + user.getUserId() + " matches");
+        }
+    }
+
+    private static void check(boolean condition, String description) {
+        System.out.println((condition ? "PASS: " : "FAIL: ") + description);
+        if (!condition) {
+            failures++;
+        }
+    }
+}
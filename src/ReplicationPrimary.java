@@ -0,0 +1,176 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Primary side of primary/standby replication (log shipping).
+ * Listens to the Library's loan changes, turns each one into a numbered LoanEvent
+ * and ships them to the standbys in batches through a ReplicationTransport.
+ * A batch is shipped when it is full, and a background timer also ships any
+ * partial batch every flushIntervalMillis, so a quiet primary never holds
+ * events back for longer than that.
+ *
+ * If the transport fails (e.g. it has been closed), the events stay buffered and
+ * the timer keeps retrying; the failure never reaches the checkout path.
+ *
+ * Standbys must start from the same seed data as the primary and be added
+ * before any loans happen, as there is no snapshot transfer.
+ */
+public class ReplicationPrimary implements LoanListener {
+
+    public static final int DEFAULT_BATCH_SIZE = 64;
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 50;
+
+    // --- Properties ---
+    private final Library library;
+    private final ReplicationTransport transport;
+    private final int batchSize;
+    private List<LoanEvent> pending;
+    private long lastSequence;
+    private long batchesShipped;
+    // The last shipping failure, or null while the transport is accepting batches
+    private RuntimeException shipFailure;
+    private final long startedNanos;
+    private final ScheduledExecutorService flushTimer;
+
+    public ReplicationPrimary(Library library, ReplicationTransport transport) {
+        this(library, transport, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL_MILLIS);
+    }
+
+    public ReplicationPrimary(Library library, ReplicationTransport transport, int batchSize, long flushIntervalMillis) {
+        if (batchSize < 1 || flushIntervalMillis < 1) {
+            throw new IllegalArgumentException("Batch size and flush interval must be at least 1");
+        }
+        this.library = library;
+        this.transport = transport;
+        this.batchSize = batchSize;
+        this.pending = new ArrayList<>(batchSize);
+        this.startedNanos = System.nanoTime();
+        this.flushTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replication-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushTimer.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        library.setReplicating(true);
+        library.addLoanListener(this);
+    }
+
+    public void addStandby(StandbyReplica standby) {
+        transport.connect(standby);
+    }
+
+    public void removeStandby(StandbyReplica standby) {
+        transport.disconnect(standby);
+    }
+
+    // --- LoanListener ---
+    @Override
+    public void onBorrow(User user, BorrowableItem item) {
+        log(LoanEvent.Type.BORROW, user.getUserId(), item.getItemID(), 0);
+    }
+
+    @Override
+    public void onReturn(User user, BorrowableItem item) {
+        log(LoanEvent.Type.RETURN, user == null ? null : user.getUserId(), item.getItemID(), 0);
+    }
+
+    @Override
+    public void onPointsAwarded(User user, int points) {
+        log(LoanEvent.Type.POINTS, user.getUserId(), null, points);
+    }
+
+    /**
+     * Ships whatever is buffered, even if the batch is not full yet.
+     * Never throws: if the transport rejects the batch the events are kept for the next try.
+     */
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<LoanEvent> batch = pending;
+        pending = new ArrayList<>(batchSize);
+        try {
+            transport.ship(batch);
+        } catch (RuntimeException e) {
+            // Nothing is logged while flush() holds the lock, so the batch is still the whole backlog
+            pending = batch;
+            if (shipFailure == null) {
+                System.err.println("Replication shipping failed, holding " + batch.size() + " events: " + e.getMessage());
+            }
+            shipFailure = e;
+            return;
+        }
+        shipFailure = null;
+        batchesShipped++;
+    }
+
+    /**
+     * Flushes the last batch and stops following the Library.
+     */
+    public void stop() {
+        library.removeLoanListener(this);
+        library.setReplicating(false);
+        flushTimer.shutdown();
+        flush();
+    }
+
+    /**
+     * Planned failover: fences this primary's Library so no more loans are made on it,
+     * ships everything it has logged, then promotes the standby once it has applied all of it.
+     * @return The promoted Library.
+     */
+    public Library handOver(StandbyReplica standby) {
+        library.fence();
+        stop();
+        if (getUnshippedCount() > 0) {
+            throw new IllegalStateException(getUnshippedCount() + " events could not be shipped; not promoting " + standby.getName());
+        }
+        return standby.promote(transport);
+    }
+
+    // --- Metrics ---
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    public synchronized long getBatchesShipped() {
+        return batchesShipped;
+    }
+
+    /**
+     * Events logged but not yet accepted by the transport.
+     */
+    public synchronized int getUnshippedCount() {
+        return pending.size();
+    }
+
+    public synchronized RuntimeException getShipFailure() {
+        return shipFailure;
+    }
+
+    /**
+     * Events logged per second since this primary was started.
+     */
+    public double getThroughputPerSecond() {
+        double seconds = (System.nanoTime() - startedNanos) / 1_000_000_000.0;
+        return seconds > 0 ? getLastSequence() / seconds : 0;
+    }
+
+    /**
+     * How many events the given standby still has to apply.
+     */
+    public long getLagInEvents(StandbyReplica standby) {
+        return getLastSequence() - standby.getLastAppliedSequence();
+    }
+
+    private synchronized void log(LoanEvent.Type type, String userId, String itemId, int points) {
+        pending.add(new LoanEvent(++lastSequence, type, userId, itemId, points));
+        // While the transport is failing, leave retries to the flush timer
+        if (pending.size() >= batchSize && shipFailure == null) {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+import java.util.List;
+
+/**
+ * Strategy Pattern: how the primary's event batches reach the standbys.
+ * LoopbackTransport delivers in-process; a network transport can be plugged in later.
+ */
+public interface ReplicationTransport {
+
+    // Registers a standby that should receive every batch shipped from now on
+    void connect(StandbyReplica standby);
+
+    void disconnect(StandbyReplica standby);
+
+    // Sends one batch of events, in sequence order, to every connected standby
+    void ship(List<LoanEvent> batch);
+
+    // Blocks until every batch shipped so far has been handed to the standbys
+    void drain();
+
+    void close();
+}
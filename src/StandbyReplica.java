@@ -0,0 +1,142 @@
+import java.util.List;
+
+/**
+ * Standby side of primary/standby replication.
+ * Applies the events shipped by a ReplicationPrimary to its own Library copy
+ * and can be promoted to take over as the live Library on failover.
+ *
+ * An event that does not fit the replica's state (unknown user or item, or an item
+ * in the wrong state) is a replication error: the replica stops at that event, is
+ * marked diverged and refuses to be promoted.
+ */
+public class StandbyReplica {
+
+    // --- Properties ---
+    private final String name;
+    private final Library library;
+    private volatile long lastAppliedSequence;
+    // Time between an event being logged on the primary and applied here
+    private volatile long lastLagNanos;
+    private volatile long maxLagNanos;
+    private volatile boolean promoted;
+    // The first event that could not be applied, or null while in sync
+    private volatile LoanEvent divergedAt;
+
+    public StandbyReplica(String name) {
+        this.name = name;
+        this.library = Library.createReplica();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Library getLibrary() {
+        return library;
+    }
+
+    /**
+     * Applies a batch in order. Events already applied are skipped, so a
+     * transport may safely redeliver a batch.
+     */
+    public synchronized void apply(List<LoanEvent> batch) {
+        if (promoted || divergedAt != null) {
+            // Fenced once promoted; stuck once diverged
+            return;
+        }
+        for (LoanEvent event : batch) {
+            if (event.getSequence() <= lastAppliedSequence) {
+                continue;
+            }
+            if (!applyEvent(event)) {
+                divergedAt = event;
+                System.err.println("Standby " + name + " diverged at event " + event);
+                return;
+            }
+            lastAppliedSequence = event.getSequence();
+            lastLagNanos = System.nanoTime() - event.getCreatedNanos();
+            if (lastLagNanos > maxLagNanos) {
+                maxLagNanos = lastLagNanos;
+            }
+        }
+    }
+
+    /**
+     * Failover: waits until every batch already shipped over the transport has been
+     * applied, then stops applying shipped events and makes this replica's Library
+     * the one returned by Library.getInstance().
+     * @return The promoted Library, ready to be wrapped in a new ReplicationPrimary.
+     * @throws IllegalStateException if this replica has diverged from the primary.
+     */
+    public Library promote(ReplicationTransport transport) {
+        // Must not hold this replica's lock here: the transport delivers through apply()
+        transport.drain();
+        synchronized (this) {
+            if (divergedAt != null) {
+                throw new IllegalStateException("Standby " + name + " cannot be promoted: diverged at event " + divergedAt);
+            }
+            promoted = true;
+            Library.promote(library);
+        }
+        return library;
+    }
+
+    public boolean isPromoted() {
+        return promoted;
+    }
+
+    public boolean isDiverged() {
+        return divergedAt != null;
+    }
+
+    public LoanEvent getDivergedAt() {
+        return divergedAt;
+    }
+
+    // --- Metrics ---
+    public long getLastAppliedSequence() {
+        return lastAppliedSequence;
+    }
+
+    public long getLastLagNanos() {
+        return lastLagNanos;
+    }
+
+    public long getMaxLagNanos() {
+        return maxLagNanos;
+    }
+
+    // Changes go through the Library's replicated-change methods rather than borrowItem(),
+    // because points arrive as their own POINTS events and must not be awarded twice.
+    // Returns false if the event does not fit this replica's state.
+    private boolean applyEvent(LoanEvent event) {
+        BorrowableItem item = event.getItemId() == null ? null : library.findItem(event.getItemId());
+        User user = event.getUserId() == null ? null : library.findUser(event.getUserId());
+
+        switch (event.getType()) {
+            case BORROW -> {
+                if (item == null || user == null || !item.isAvailable()) {
+                    return false;
+                }
+                library.applyReplicatedBorrow(user, item);
+            }
+            case RETURN -> {
+                if (item == null || item.isAvailable()) {
+                    return false;
+                }
+                User holder = item.getCurrentUser();
+                if (event.getUserId() != null && (holder == null || !holder.getUserId().equals(event.getUserId()))) {
+                    return false;
+                }
+                library.applyReplicatedReturn(item);
+            }
+            case POINTS -> {
+                if (user == null) {
+                    return false;
+                }
+                library.applyReplicatedPoints(user, event.getPoints());
+            }
+        }
+        return true;
+    }
+}
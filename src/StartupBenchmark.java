@@ -0,0 +1,65 @@
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures time-to-first-borrow: how long a fresh JVM takes from launch to
+ * completing one borrow and exiting, for the headless entry point and for the
+ * current JavaFX launch path (Main --startup-probe, which runs GuiStartupProbe).
+ *
+ * Usage: StartupBenchmark [runs] [extra JVM options...]
+ * e.g. pass -XX:SharedArchiveFile=library.jsa to compare with an AppCDS archive.
+ */
+public class StartupBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        List<String> jvmOptions = args.length > 1 ? Arrays.asList(args).subList(1, args.length) : List.of();
+
+        System.out.println("=== Time To First Borrow (" + runs + " runs" + (jvmOptions.isEmpty() ? "" : ", " + jvmOptions) + ") ===");
+        report("Headless (HeadlessMain)", runs, jvmOptions, "HeadlessMain", "borrow", "U001", "WT001");
+        report("JavaFX GUI (Main)", runs, jvmOptions, "Main", "--startup-probe");
+    }
+
+    private static void report(String label, int runs, List<String> jvmOptions, String... mainAndArgs) throws Exception {
+        long[] times = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            try {
+                times[i] = timeRun(jvmOptions, mainAndArgs);
+            } catch (IllegalStateException e) {
+                System.out.println(label + ": failed (" + e.getMessage() + ")");
+                return;
+            }
+        }
+        Arrays.sort(times);
+        System.out.printf("%-30s median %.1f ms, best %.1f ms%n", label, times[runs / 2] / 1e6, times[0] / 1e6);
+    }
+
+    /**
+     * Wall-clock time for one child JVM.
+     * @throws IllegalStateException with the exit code and first error line if it did not exit cleanly.
+     */
+    private static long timeRun(List<String> jvmOptions, String... mainAndArgs) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.addAll(Arrays.asList(mainAndArgs));
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        // Reads until the child exits, so its error output can never fill the pipe and block it
+        String errors = new String(process.getErrorStream().readAllBytes()).trim();
+        int exitCode = process.waitFor();
+        long elapsed = System.nanoTime() - start;
+        if (exitCode != 0) {
+            String firstLine = errors.isEmpty() ? "no error output" : errors.lines().findFirst().orElse("");
+            throw new IllegalStateException("exit code " + exitCode + ": " + firstLine);
+        }
+        return elapsed;
+    }
+}
@@ -0,0 +1,72 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket used to rate limit a single user.
+ *
+ * Instead of storing a token count and a refill timer, it stores the time at which
+ * the bucket will next be full again (the "theoretical arrival time"). Taking a token
+ * pushes that time forward by one refill interval with a single compare-and-set,
+ * so concurrent callers never block each other.
+ */
+public class TokenBucket {
+
+    // --- Properties ---
+    // Time it takes to earn back one token
+    private final long intervalNanos;
+    // How far ahead of "now" the arrival time may run: capacity * interval
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param tokensPerSecond Sustained rate at which tokens are refilled.
+     * @param capacity        Maximum burst size when the bucket is full.
+     */
+    public TokenBucket(double tokensPerSecond, int capacity) {
+        if (tokensPerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("Rate and capacity must be positive");
+        }
+        this.intervalNanos = (long) (1_000_000_000L / tokensPerSecond);
+        this.burstNanos = intervalNanos * capacity;
+        // Start full
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Takes one token if one is available.
+     * @return false if the caller is over its rate and should be rejected.
+     */
+    public boolean tryAcquire() {
+        long now = System.nanoTime();
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = Math.max(arrival, now) + intervalNanos;
+            if (next - now > burstNanos) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * True once the bucket has refilled to capacity, i.e. the arrival time is in the past.
+     */
+    public boolean isFull() {
+        return theoreticalArrival.get() <= System.nanoTime();
+    }
+
+    /**
+     * Gives back a token taken by tryAcquire() for a request that did not run.
+     * The bucket can never hold more than its capacity, because tryAcquire()
+     * measures from whichever is later, the arrival time or now.
+     */
+    public void refund() {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            if (theoreticalArrival.compareAndSet(arrival, arrival - intervalNanos)) {
+                return;
+            }
+        }
+    }
+}
@@ -8,6 +8,8 @@ public class User {
     private List<BorrowableItem> borrowedItems;
     // Additional Feature: Loyalty Points
     private int loyaltyPoints;
+    // Dashboard counters to notify of points changes (set by the Library, may be null)
+    private InventoryCounters counters;
 
     public User(String userId, String name) {
         this.userId = userId;
@@ -37,11 +39,20 @@ public class User {
     }
 
     // --- Loyalty Points Methods ---
-    public void addLoyaltyPoints(int points) {
+    public synchronized void addLoyaltyPoints(int points) {
+        int oldPoints = this.loyaltyPoints;
         this.loyaltyPoints += points;
+        if (counters != null) {
+            counters.pointsChanged(this, oldPoints, this.loyaltyPoints);
+        }
     }
 
-    public int getLoyaltyPoints() {
+    public synchronized int getLoyaltyPoints() {
         return loyaltyPoints;
     }
+
+    synchronized void attachCounters(InventoryCounters counters) {
+        this.counters = counters;
+        counters.pointsChanged(this, loyaltyPoints, loyaltyPoints);
+    }
 }
\ No newline at end of file
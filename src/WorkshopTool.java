@@ -46,6 +46,11 @@ public class WorkshopTool extends BorrowableItem {
         this.requiredEquipment.add(equipment);
     }
 
+    @Override
+    public String getCategory() {
+        return "Workshop Tool";
+    }
+
     // --- Overridden Method ---
     /**
      * Provides a specific implementation for the print() method.